@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2026 University of Dundee & Open Microscopy Environment.
+ * All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package integration.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import ome.formats.importer.IObservable;
+import ome.formats.importer.IObserver;
+import ome.formats.importer.ImportCandidates;
+import ome.formats.importer.ImportConfig;
+import ome.formats.importer.ImportEvent;
+import ome.formats.importer.ImportLibrary;
+import ome.formats.importer.OMEROWrapper;
+import ome.formats.importer.util.ErrorHandler;
+import omero.MissingPyramidException;
+import omero.api.RawPixelsStorePrx;
+import omero.model.Pixels;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the import of synthetic datasets of a controlled shape using
+ * {@link ImportLibrary}, as done by <code>AbstractServerImportTest</code>.
+ * Each invocation imports the whole dataset and waits until every imported
+ * image is viewable i.e. has its pyramid if one is required.
+ * <p>
+ * The primary result is the number of datasets imported per second. The
+ * files and bytes imported per second and the milliseconds spent in each
+ * import phase are reported as secondary results in the JMH report. The
+ * {@link #PLATE} is described by a single empty file so its bytes per second
+ * are always zero.
+ * </p>
+ *
+ * @since 5.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImportBenchmark {
+
+    /** Many small PNG files, one image per file. */
+    public static final String SMALL_FILES = "smallFiles";
+
+    /** A few large PNG files, each requiring a pyramid. */
+    public static final String LARGE_FILES = "largeFiles";
+
+    /** One plate with many wells and fields. */
+    public static final String PLATE = "plate";
+
+    /** The number of files imported for {@link #SMALL_FILES}. */
+    private static final int SMALL_FILES_COUNT = 500;
+
+    /** The number of files imported for {@link #LARGE_FILES}. */
+    private static final int LARGE_FILES_COUNT = 2;
+
+    /** The size along the X and Y-axis of the {@link #LARGE_FILES}. */
+    private static final int LARGE_FILE_SIZE = 4000;
+
+    /** The fake file describing the {@link #PLATE}. */
+    private static final String PLATE_FILE = "plate&plates=1&plateRows=16"
+            + "&plateCols=24&fields=2&sizeX=256&sizeY=256.fake";
+
+    /** The shape of the imported dataset. */
+    @Param({SMALL_FILES, LARGE_FILES, PLATE})
+    public String shape;
+
+    /** Logs in and creates the importer. */
+    private final ServerFixture fixture = new ServerFixture();
+
+    /** The directory holding the files to import. */
+    private File directory;
+
+    /** The paths of the files to import. */
+    private String[] paths;
+
+    /** The total size in bytes of the files to import. */
+    private long size;
+
+    /**
+     * Counters reported, like the primary result, as rates i.e. files and
+     * bytes imported per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+
+        /** The number of files imported. */
+        public long files;
+
+        /**
+         * The number of bytes imported, always zero for the
+         * {@link ImportBenchmark#PLATE}.
+         */
+        public long bytes;
+
+        /** Resets the counters before each iteration. */
+        @Setup(Level.Iteration)
+        public void reset() {
+            files = 0;
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Counters reported as totals i.e. milliseconds spent in each phase of
+     * the imports of an iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Phases implements IObserver {
+
+        /** The time spent uploading the files. */
+        public long uploadMillis;
+
+        /** The time spent saving the metadata. */
+        public long metadataMillis;
+
+        /** The time spent processing the pixel data e.g. min/max. */
+        public long pixelDataMillis;
+
+        /** The time spent generating the thumbnails. */
+        public long thumbnailMillis;
+
+        /** The time spent waiting for the pyramids to be built. */
+        public long pyramidMillis;
+
+        /** The time at which the current phase started. */
+        private long start;
+
+        /** The pixels imported. */
+        private final List<Pixels> pixels = new ArrayList<Pixels>();
+
+        /** Resets the counters before each iteration. */
+        @Setup(Level.Iteration)
+        public void reset() {
+            uploadMillis = 0;
+            metadataMillis = 0;
+            pixelDataMillis = 0;
+            thumbnailMillis = 0;
+            pyramidMillis = 0;
+            pixels.clear();
+        }
+
+        /**
+         * Returns the time elapsed since the start of the current phase and
+         * starts the next one.
+         *
+         * @return See above.
+         */
+        private long lap() {
+            long now = System.currentTimeMillis();
+            long elapsed = now - start;
+            start = now;
+            return elapsed;
+        }
+
+        @Override
+        public void update(IObservable importLibrary, ImportEvent event) {
+            if (event instanceof ErrorHandler.EXCEPTION_EVENT) {
+                Exception ex = ((ErrorHandler.EXCEPTION_EVENT) event).exception;
+                if (ex instanceof RuntimeException) {
+                    throw (RuntimeException) ex;
+                } else {
+                    throw new RuntimeException(ex);
+                }
+            } else if (event instanceof ImportEvent.FILESET_UPLOAD_START) {
+                lap();
+            } else if (event instanceof ImportEvent.FILESET_UPLOAD_END) {
+                uploadMillis += lap();
+            } else if (event instanceof ImportEvent.METADATA_IMPORTED) {
+                metadataMillis += lap();
+            } else if (event instanceof ImportEvent.PIXELDATA_PROCESSED) {
+                pixelDataMillis += lap();
+            } else if (event instanceof ImportEvent.THUMBNAILS_GENERATED) {
+                thumbnailMillis += lap();
+            } else if (event instanceof ImportEvent.IMPORT_DONE) {
+                pixels.addAll(((ImportEvent.IMPORT_DONE) event).pixels);
+            }
+        }
+    }
+
+    /**
+     * Logs in and writes the files to import.
+     *
+     * @throws Exception Thrown if an error occurred.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture.start();
+        directory = File.createTempFile("ImportBenchmark", "");
+        directory.delete();
+        directory.mkdir();
+        List<File> files = new ArrayList<File>();
+        if (SMALL_FILES.equals(shape)) {
+            for (int i = 0; i < SMALL_FILES_COUNT; i++) {
+                File f = new File(directory, "small" + i + ".png");
+                fixture.createImageFile(f, "png");
+                files.add(f);
+            }
+        } else if (LARGE_FILES.equals(shape)) {
+            Random random = new Random(ServerFixture.SEED);
+            BufferedImage bi = new BufferedImage(LARGE_FILE_SIZE,
+                    LARGE_FILE_SIZE, BufferedImage.TYPE_3BYTE_BGR);
+            for (int i = 0; i < LARGE_FILES_COUNT; i++) {
+                for (int x = 0; x < LARGE_FILE_SIZE; x++) {
+                    for (int y = 0; y < LARGE_FILE_SIZE; y++) {
+                        bi.setRGB(x, y, random.nextInt(0x1000000));
+                    }
+                }
+                File f = new File(directory, "large" + i + ".png");
+                ImageIO.write(bi, "png", f);
+                files.add(f);
+            }
+        } else if (PLATE.equals(shape)) {
+            File f = new File(directory, PLATE_FILE);
+            f.createNewFile();
+            files.add(f);
+        } else {
+            throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        paths = new String[files.size()];
+        size = 0;
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = files.get(i).getAbsolutePath();
+            size += files.get(i).length();
+        }
+    }
+
+    /**
+     * Deletes the files and closes the sessions.
+     *
+     * @throws Exception Thrown if an error occurred.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        directory.delete();
+        fixture.stop();
+    }
+
+    /**
+     * Imports the dataset and waits for the pyramids.
+     *
+     * @param throughput The files and bytes counters.
+     * @param phases The time spent in each import phase.
+     * @throws Exception Thrown if an error occurred.
+     */
+    @Benchmark
+    public void importDataset(Throughput throughput, Phases phases)
+            throws Exception {
+        ImportConfig config = new ImportConfig();
+        OMEROWrapper reader = new OMEROWrapper(config);
+        ImportCandidates candidates = new ImportCandidates(reader, paths,
+                phases);
+        ImportLibrary library = new ImportLibrary(fixture.getImporter(),
+                reader);
+        library.addObserver(phases);
+        if (!library.importCandidates(config, candidates)) {
+            throw new IllegalStateException("Import of " + shape + " failed");
+        }
+        long start = System.currentTimeMillis();
+        RawPixelsStorePrx svc = fixture.getSession().createRawPixelsStore();
+        try {
+            for (Pixels p : phases.pixels) {
+                waitForPyramid(svc, p.getId().getValue());
+            }
+        } finally {
+            svc.close();
+        }
+        phases.pyramidMillis += System.currentTimeMillis() - start;
+        phases.pixels.clear();
+        throughput.files += paths.length;
+        throughput.bytes += size;
+    }
+
+    /**
+     * Waits until the pixels set can be read i.e. until its pyramid, if any,
+     * has been built.
+     *
+     * @param svc The store used to access the pixels.
+     * @param pixelsId The identifier of the pixels set.
+     * @throws Exception Thrown if an error occurred.
+     */
+    private static void waitForPyramid(RawPixelsStorePrx svc, long pixelsId)
+            throws Exception {
+        while (true) {
+            try {
+                svc.setPixelsId(pixelsId, false);
+                return;
+            } catch (MissingPyramidException e) {
+                Thread.sleep(Math.max(100L, e.backOff));
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2026 University of Dundee & Open Microscopy Environment.
+ * All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package integration.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import omero.api.RenderingEnginePrx;
+import omero.model.IObject;
+import omero.model.Image;
+import omero.model.RenderingModel;
+import omero.romio.PlaneDef;
+import omero.romio.RGBBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the <code>RenderingEngine</code> render methods
+ * exercised for correctness in <code>RenderingEngineTest</code>.
+ * A plane is rendered for each combination of pixels type, number of channels,
+ * plane size and rendering model.
+ *
+ * @since 5.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class RenderingEngineBenchmark {
+
+    /** The pixels type of the rendered image. */
+    @Param({"uint8", "int8", "uint16", "int16", "uint32", "int32"})
+    public String pixelsType;
+
+    /** The number of channels of the rendered image. */
+    @Param({"1", "3"})
+    public int sizeC;
+
+    /** The size along the X and Y-axis of the rendered plane. */
+    @Param({"512", "2048"})
+    public int planeSize;
+
+    /** The rendering model i.e. <code>greyscale</code> or <code>rgb</code>. */
+    @Param({"greyscale", "rgb"})
+    public String model;
+
+    /** Creates the user, the image and its binary data. */
+    private final ServerFixture fixture = new ServerFixture();
+
+    /** The rendering engine loaded for the image. */
+    private RenderingEnginePrx re;
+
+    /** The plane to render. */
+    private PlaneDef pDef;
+
+    /**
+     * Imports the image and loads the rendering engine, all the channels are
+     * turned on and the rendering model is set.
+     *
+     * @throws Exception Thrown if an error occurred.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture.start();
+        Image image = fixture.createImage(planeSize, planeSize, sizeC,
+                pixelsType);
+        long id = image.getPrimaryPixels().getId().getValue();
+        re = fixture.getSession().createRenderingEngine();
+        re.lookupPixels(id);
+        if (!(re.lookupRenderingDef(id))) {
+            re.resetDefaultSettings(true);
+            re.lookupRenderingDef(id);
+        }
+        re.load();
+        for (int c = 0; c < sizeC; c++) {
+            re.setActive(c, true);
+        }
+        for (IObject m : fixture.getSession().getTypesService()
+                .allEnumerations(RenderingModel.class.getName())) {
+            if (model.equals(((RenderingModel) m).getValue().getValue())) {
+                re.setModel((RenderingModel) m);
+            }
+        }
+        if (!model.equals(re.getModel().getValue().getValue())) {
+            throw new IllegalArgumentException("Unknown model: " + model);
+        }
+        pDef = new PlaneDef();
+        pDef.t = re.getDefaultT();
+        pDef.z = re.getDefaultZ();
+        pDef.slice = omero.romio.XY.value;
+    }
+
+    /**
+     * Closes the rendering engine and the sessions.
+     *
+     * @throws Exception Thrown if an error occurred.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (re != null) {
+            re.close();
+        }
+        fixture.stop();
+    }
+
+    /**
+     * Renders the plane using the <code>render</code> method.
+     *
+     * @return The rendered buffer.
+     * @throws Exception Thrown if an error occurred.
+     */
+    @Benchmark
+    public RGBBuffer render() throws Exception {
+        return re.render(pDef);
+    }
+
+    /**
+     * Renders the plane using the <code>renderAsPackedInt</code> method.
+     *
+     * @return The rendered buffer.
+     * @throws Exception Thrown if an error occurred.
+     */
+    @Benchmark
+    public int[] renderAsPackedInt() throws Exception {
+        return re.renderAsPackedInt(pDef);
+    }
+
+    /**
+     * Renders the plane using the <code>renderCompressed</code> method.
+     *
+     * @return The JPEG encoded plane.
+     * @throws Exception Thrown if an error occurred.
+     */
+    @Benchmark
+    public byte[] renderCompressed() throws Exception {
+        return re.renderCompressed(pDef);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 University of Dundee & Open Microscopy Environment.
+ * All rights reserved.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package integration.benchmark;
+
+import java.io.File;
+import java.util.Random;
+
+import integration.AbstractServerTest;
+import ome.formats.OMEROMetadataStoreClient;
+import omero.api.ServiceFactoryPrx;
+import omero.model.Image;
+import omero.model.Pixels;
+import omero.model.enums.PixelsTypedouble;
+import omero.model.enums.PixelsTypefloat;
+import omero.model.enums.PixelsTypeint16;
+import omero.model.enums.PixelsTypeint32;
+import omero.model.enums.PixelsTypeuint16;
+import omero.model.enums.PixelsTypeuint32;
+
+/**
+ * Exposes the fixtures of {@link AbstractServerTest} to the JMH benchmarks.
+ * The TestNG lifecycle methods are invoked by hand from the benchmark
+ * <code>@Setup</code> and <code>@TearDown</code> methods so that the
+ * benchmarks log in and create their data exactly like the integration tests.
+ *
+ * @since 5.6
+ */
+public class ServerFixture extends AbstractServerTest {
+
+    /** Seed used to generate the pixel values so that runs are comparable. */
+    static final long SEED = 0x5eedL;
+
+    /**
+     * Logs in as a new user in a new <code>rw----</code> group.
+     *
+     * @throws Exception Thrown if an error occurred.
+     */
+    public void start() throws Exception {
+        setUp();
+    }
+
+    /**
+     * Closes all the sessions opened by the fixture.
+     *
+     * @throws Exception Thrown if an error occurred.
+     */
+    public void stop() throws Exception {
+        tearDown();
+    }
+
+    /**
+     * Returns the session of the user logged in by {@link #start()}.
+     *
+     * @return See above.
+     */
+    public ServiceFactoryPrx getSession() {
+        return factory;
+    }
+
+    /**
+     * Returns the metadata store used to import files as the user logged in
+     * by {@link #start()}.
+     *
+     * @return See above.
+     * @throws Exception Thrown if an error occurred.
+     */
+    public OMEROMetadataStoreClient getImporter() throws Exception {
+        return createImporter();
+    }
+
+    /**
+     * Writes a small image file of the given format.
+     *
+     * @param file The file where to write the image.
+     * @param format One of the follow types: jpeg, png.
+     * @throws Exception Thrown if an error occurred.
+     */
+    public void createImageFile(File file, String format) throws Exception {
+        mmFactory.createImageFile(file, format);
+    }
+
+    /**
+     * Creates an image with one z-section and one timepoint and fills every
+     * plane with pseudo-random values.
+     *
+     * @param sizeX The number of pixels along the X-axis.
+     * @param sizeY The number of pixels along the Y-axis.
+     * @param sizeC The number of channels.
+     * @param pixelsType The pixels type e.g. <code>uint16</code>.
+     * @return The saved image with its binary data.
+     * @throws Exception Thrown if an error occurred.
+     */
+    public Image createImage(int sizeX, int sizeY, int sizeC,
+            String pixelsType) throws Exception {
+        Image image = mmFactory.createImage(sizeX, sizeY, 1, 1, sizeC,
+                pixelsType);
+        image = (Image) iUpdate.saveAndReturnObject(image);
+        Pixels pixels = image.getPrimaryPixels();
+        final int bytesPerPixel = getBytesPerPixel(pixelsType);
+        final Random random = new Random(SEED);
+        omero.util.RPSTileLoop loop = new omero.util.RPSTileLoop(
+                client.getSession(), pixels);
+        loop.forEachTile(256, 256, new omero.util.TileLoopIteration() {
+            public void run(omero.util.TileData data, int z, int c, int t,
+                    int x, int y, int tileWidth, int tileHeight, int tileCount) {
+                byte[] tile = new byte[tileWidth * tileHeight * bytesPerPixel];
+                random.nextBytes(tile);
+                data.setTile(tile, z, c, t, x, y, tileWidth, tileHeight);
+            }
+        });
+        image.setPixels(0, loop.getPixels());
+        return image;
+    }
+
+    /**
+     * Returns the number of bytes used to store a pixel of the given type.
+     *
+     * @param pixelsType The pixels type e.g. <code>uint16</code>.
+     * @return See above.
+     */
+    static int getBytesPerPixel(String pixelsType) {
+        if (PixelsTypeint16.value.equals(pixelsType)
+                || PixelsTypeuint16.value.equals(pixelsType)) {
+            return 2;
+        }
+        if (PixelsTypeint32.value.equals(pixelsType)
+                || PixelsTypeuint32.value.equals(pixelsType)
+                || PixelsTypefloat.value.equals(pixelsType)) {
+            return 4;
+        }
+        if (PixelsTypedouble.value.equals(pixelsType)) {
+            return 8;
+        }
+        return 1;
+    }
+}
@@ -17,7 +17,10 @@
  */
 package integration;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -50,6 +53,8 @@ public class CmdCallbackTest extends AbstractServerTest {
 
         final AtomicInteger steps = new AtomicInteger();
 
+        final List<int[]> progress = Collections.synchronizedList(new ArrayList<int[]>());
+
         public TestCB(omero.client client, HandlePrx handle) throws ServerError {
             super(client, handle);
         }
@@ -57,6 +62,7 @@ public class CmdCallbackTest extends AbstractServerTest {
         @Override
         public void step(int complete, int total, Current __current) {
             steps.incrementAndGet();
+            progress.add(new int[] {complete, total});
         }
 
         @Override
@@ -68,6 +74,19 @@ public class CmdCallbackTest extends AbstractServerTest {
             Assert.assertEquals(steps.get(), expected);
         }
 
+        public void assertProgressOrdered(int expectedTotal) {
+            synchronized (progress) {
+                int last = -1;
+                for (int[] step : progress) {
+                    Assert.assertEquals(step[1], expectedTotal);
+                    Assert.assertTrue(step[0] > last,
+                            "step " + step[0] + " after " + last);
+                    Assert.assertTrue(step[0] <= expectedTotal);
+                    last = step[0];
+                }
+            }
+        }
+
         public void assertFinished() {
             Assert.assertEquals(finished.getCount(), 0);
             Assert.assertFalse(isCancelled());
@@ -94,21 +113,28 @@ public class CmdCallbackTest extends AbstractServerTest {
         }
     }
 
-    TestCB run(Request req) throws Exception {
+    HandlePrx submit(Request req) throws Exception {
         EventContext ec = newUserAndGroup("rw----");
         loginUser(ec);
-        HandlePrx handle = client.getSession().submit(req);
-        return new TestCB(client, handle);
+        return client.getSession().submit(req);
+    }
+
+    TestCB run(Request req) throws Exception {
+        return new TestCB(client, submit(req));
     }
 
     // Timing
     // =========================================================================
 
-    TestCB timing(int millis, int steps) throws Exception {
+    Timing newTiming(int millis, int steps) {
         Timing t = new Timing();
         t.millisPerStep = millis;
         t.steps = steps;
-        return run(t);
+        return t;
+    }
+
+    TestCB timing(int millis, int steps) throws Exception {
+        return run(newTiming(millis, steps));
     }
 
     @Test
@@ -133,6 +159,33 @@ public class CmdCallbackTest extends AbstractServerTest {
         cb.assertFinished(10); // Modulus-10
     }
 
+    @Test
+    public void testTimingProgressIsOrdered() throws Exception {
+        HandlePrx handle = submit(newTiming(10, 100));
+        TestCB cb = new TestCB(client, handle); // Runs 1 second
+        int last = -1;
+        for (int i = 0; i < 100 && cb.finished.getCount() > 0; i++) {
+            Status status = handle.getStatus();
+            // steps stays 0 until the request has been initialized
+            if (status.steps != 0) {
+                Assert.assertEquals(status.steps, 100);
+                Assert.assertTrue(status.currentStep >= last,
+                        "status went from step " + last + " to " + status.currentStep);
+                Assert.assertTrue(status.currentStep <= status.steps);
+                last = status.currentStep;
+            }
+            cb.finished.await(50, TimeUnit.MILLISECONDS);
+        }
+        cb.block(1500);
+        cb.assertFinished(10); // Modulus-10
+        cb.assertProgressOrdered(100);
+        Status status = handle.getStatus();
+        Assert.assertEquals(status.steps, 100);
+        Assert.assertTrue(status.currentStep >= last);
+        Assert.assertTrue(status.currentStep <= status.steps);
+        Assert.assertTrue(status.stopTime >= status.startTime);
+    }
+
     // DoAll
     // =========================================================================
 
@@ -98,6 +98,22 @@ public class DiskUsageTest extends AbstractServerTest {
         return (DiskUsage2Response) doChange(request);
     }
 
+    /**
+     * Find the total bytes used by the given objects.
+     * @param className the objects' class
+     * @param ids the objects' IDs
+     * @return the total bytes used, across all users and groups
+     * @throws Exception if thrown during request execution
+     */
+    private long getTotalBytesUsed(String className, Collection<Long> ids) throws Exception {
+        final DiskUsage2Response response = runDiskUsage(ImmutableMap.of(className, ids));
+        long total = 0;
+        for (final Long size : response.totalBytesUsed.values()) {
+            total += size;
+        }
+        return total;
+    }
+
     /**
      * Create a new file annotation.
      * @param size the size of the file annotation
@@ -631,6 +647,57 @@ public class DiskUsageTest extends AbstractServerTest {
         assertMapsEqual(response.totalFileCount, expected);
     }
 
+    /**
+     * Test that the usage of a container follows changes to what it contains and to its annotations.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void testSizeFollowsChanges() throws Exception {
+        final long imageSize = getTotalBytesUsed("Image", Collections.singleton(imageId));
+        Assert.assertTrue(imageSize >= fileSize + thumbnailSize);
+
+        final Dataset dataset = new DatasetI();
+        dataset.setName(omero.rtypes.rstring("test dataset"));
+        final long datasetId = iUpdate.saveAndReturnObject(dataset).getId().getValue();
+        final List<Long> datasetIds = Collections.singletonList(datasetId);
+        Long annotationId = null;
+
+        try {
+            Assert.assertEquals(getTotalBytesUsed("Dataset", datasetIds), 0);
+
+            /* add the image */
+            final DatasetImageLink dil = new DatasetImageLinkI();
+            dil.setParent(new DatasetI(datasetId, false));
+            dil.setChild(new ImageI(imageId, false));
+            final long linkId = iUpdate.saveAndReturnObject(dil).getId().getValue();
+            Assert.assertEquals(getTotalBytesUsed("Dataset", datasetIds), imageSize);
+
+            /* annotate the dataset */
+            final long annotationSize = 123456;
+            annotationId = createFileAnnotation(annotationSize);
+            addAnnotation(Dataset.class, datasetId, annotationId);
+            Assert.assertEquals(getTotalBytesUsed("Dataset", datasetIds), imageSize + annotationSize);
+            Assert.assertEquals(getTotalBytesUsed("Image", Collections.singleton(imageId)), imageSize);
+
+            /* remove the annotation */
+            doChange(Requests.delete().target("FileAnnotation").id(annotationId).build());
+            annotationId = null;
+            Assert.assertEquals(getTotalBytesUsed("Dataset", datasetIds), imageSize);
+
+            /* remove the image */
+            doChange(Requests.delete().target("DatasetImageLink").id(linkId).build());
+            Assert.assertEquals(getTotalBytesUsed("Dataset", datasetIds), 0);
+            Assert.assertEquals(getTotalBytesUsed("Image", Collections.singleton(imageId)), imageSize);
+        } finally {
+            if (annotationId != null) {
+                doChange(Requests.delete().target("FileAnnotation").id(annotationId).build());
+            }
+            final ChildOption option = Requests.option().excludeType("Image").build();
+            final Delete2 request = Requests.delete().target("Dataset").id(datasetId).option(option).build();
+            doChange(request);
+        }
+    }
+
     /**
      * Test that a bad class name causes an error response.
      * @throws Exception unexpected
@@ -30,10 +30,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import ome.io.nio.RomioPixelBuffer;
 import omero.RLong;
 import omero.RString;
 import omero.RType;
 import omero.ServerError;
+import omero.api.RawPixelsStorePrx;
 import omero.cmd.Delete2;
 import omero.cmd.Duplicate;
 import omero.cmd.DuplicateResponse;
@@ -542,6 +544,94 @@ public class DuplicationTest extends AbstractServerTest {
         Assert.assertEquals(reportedPlaneInfoIds, originalPlaneInfoIds);
     }
 
+    /**
+     * Write every plane of the given pixels, each filled with a value offset by its plane index.
+     * @param pixelsId the ID of the pixels to write
+     * @param sizeZ the number of planes of the pixels
+     * @param value the value with which to fill the first plane
+     * @throws Exception unexpected
+     */
+    private void writePlanes(long pixelsId, int sizeZ, byte value) throws Exception {
+        final RawPixelsStorePrx rps = factory.createRawPixelsStore();
+        try {
+            rps.setPixelsId(pixelsId, false);
+            for (int z = 0; z < sizeZ; z++) {
+                final byte[] plane = new byte[RomioPixelBuffer.safeLongToInteger(rps.getPlaneSize())];
+                Arrays.fill(plane, (byte) (value + z));
+                rps.setPlane(plane, z, 0, 0);
+            }
+            rps.save();
+        } finally {
+            rps.close();
+        }
+    }
+
+    /**
+     * Assert that every plane of the given pixels is filled with a value offset by its plane index.
+     * @param pixelsId the ID of the pixels to read
+     * @param sizeZ the number of planes of the pixels
+     * @param value the value with which the first plane is expected to be filled
+     * @throws Exception unexpected
+     */
+    private void assertPlanes(long pixelsId, int sizeZ, byte value) throws Exception {
+        final RawPixelsStorePrx rps = factory.createRawPixelsStore();
+        try {
+            rps.setPixelsId(pixelsId, false);
+            for (int z = 0; z < sizeZ; z++) {
+                final byte[] expected = new byte[RomioPixelBuffer.safeLongToInteger(rps.getPlaneSize())];
+                Arrays.fill(expected, (byte) (value + z));
+                Assert.assertEquals(rps.getPlane(z, 0, 0), expected, "pixels " + pixelsId + ", plane " + z);
+            }
+        } finally {
+            rps.close();
+        }
+    }
+
+    /**
+     * Create then duplicate an image and test that writing the pixel data of either image leaves the other's unchanged.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void testDuplicateImagePixelDataIsIndependent() throws Exception {
+        newUserAndGroup("rwr---");
+
+        /* create and save an image then write its pixel data */
+
+        final int sizeZ = 3;
+        final Image originalImage = (Image) iUpdate
+                .saveAndReturnObject(mmFactory.createImage(64, 48, sizeZ, 1, 1,
+                        ModelMockFactory.UINT8));
+        final long originalImageId = originalImage.getId().getValue();
+        testImages.add(originalImageId);
+        final long originalPixelsId = originalImage.getPrimaryPixels().getId().getValue();
+        writePlanes(originalPixelsId, sizeZ, (byte) 10);
+
+        /* duplicate the image */
+
+        final Duplicate dup = Requests.duplicate().target("Image").id(originalImageId).build();
+        final DuplicateResponse response = (DuplicateResponse) doChange(dup);
+        final long duplicateImageId = response.duplicates.get("ome.model.core.Image").get(0);
+        testImages.add(duplicateImageId);
+        final List<Long> duplicatePixelsIds = response.duplicates.get("ome.model.core.Pixels");
+        Assert.assertEquals(duplicatePixelsIds.size(), 1);
+        final long duplicatePixelsId = duplicatePixelsIds.get(0);
+        Assert.assertNotEquals(originalPixelsId, duplicatePixelsId);
+
+        /* Duplicate does not copy binary data so the duplicate's planes are written before they are read */
+
+        /* writing the duplicate must not change the original */
+
+        writePlanes(duplicatePixelsId, sizeZ, (byte) 20);
+        assertPlanes(duplicatePixelsId, sizeZ, (byte) 20);
+        assertPlanes(originalPixelsId, sizeZ, (byte) 10);
+
+        /* writing the original must not change the duplicate */
+
+        writePlanes(originalPixelsId, sizeZ, (byte) 30);
+        assertPlanes(originalPixelsId, sizeZ, (byte) 30);
+        assertPlanes(duplicatePixelsId, sizeZ, (byte) 20);
+    }
+
     /**
      * Test duplication of an annotated image with duplication of its annotation.
      * @throws Exception unexpected
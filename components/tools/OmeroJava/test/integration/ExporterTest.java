@@ -35,6 +35,7 @@ import javax.xml.transform.stream.StreamSource;
 import loci.common.Constants;
 import loci.common.RandomAccessInputStream;
 import loci.common.RandomAccessOutputStream;
+import loci.formats.tiff.IFD;
 import loci.formats.tiff.TiffParser;
 import loci.formats.tiff.TiffSaver;
 import ome.services.blitz.util.CurrentPlatform;
@@ -472,6 +473,89 @@ public class ExporterTest extends AbstractServerTest {
         exporter.close();
     }
 
+    /**
+     * Tests to export a multi-plane image as OME-TIFF and to read it back in
+     * chunks of various sizes and orders. All reads must return the same
+     * bytes and the file must hold one IFD of the correct size per plane.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testExportAsOMETIFFReadInChunks() throws Exception {
+        final int sizeX = 600;
+        final int sizeY = 500;
+        final int sizeZ = 3;
+        final int sizeC = 2;
+        final int sizeT = 2;
+        final int planes = sizeZ * sizeC * sizeT;
+        File f = File.createTempFile("testExportAsOMETIFFReadInChunks",
+                String.format("&pixelType=uint16&sizeX=%d&sizeY=%d&sizeZ=%d"
+                        + "&sizeC=%d&sizeT=%d.fake", sizeX, sizeY, sizeZ,
+                        sizeC, sizeT));
+        f.deleteOnExit();
+        Pixels pixels = importFile(f, "fake").get(0);
+
+        File exported = File.createTempFile(
+                RandomStringUtils.random(100, false, true), "." + OME_TIFF);
+        exported.deleteOnExit();
+        ExporterPrx exporter = factory.createExporter();
+        try {
+            exporter.addImage(pixels.getImage().getId().getValue());
+            long size = exporter.generateTiff();
+            Assert.assertTrue(size > (long) sizeX * sizeY * 2 * planes);
+
+            // read sequentially in blocks of the maximum size
+            byte[] expected = new byte[(int) size];
+            for (int offset = 0; offset < size; offset += INC) {
+                int length = (int) Math.min(INC, size - offset);
+                byte[] block = exporter.read(offset, length);
+                Assert.assertEquals(block.length, length);
+                System.arraycopy(block, 0, expected, offset, length);
+            }
+
+            // read backwards in blocks not aligned on the previous ones
+            final int odd = INC / 3 + 1;
+            byte[] values = new byte[(int) size];
+            for (long end = size; end > 0; end -= odd) {
+                int offset = (int) Math.max(0, end - odd);
+                int length = (int) (end - offset);
+                byte[] block = exporter.read(offset, length);
+                Assert.assertEquals(block.length, length);
+                System.arraycopy(block, 0, values, offset, length);
+            }
+            Assert.assertEquals(values, expected);
+
+            // read small blocks at the start, the middle and the end
+            for (long offset : new long[] {0, 7, size / 2, size - 3}) {
+                int length = (int) Math.min(3, size - offset);
+                byte[] block = exporter.read(offset, length);
+                Assert.assertEquals(block, Arrays.copyOfRange(expected,
+                        (int) offset, (int) offset + length));
+            }
+
+            Files.write(exported.toPath(), expected);
+        } finally {
+            exporter.close();
+        }
+
+        // check the layout of the exported file
+        TiffParser parser = new TiffParser(exported.getAbsolutePath());
+        try {
+            Assert.assertTrue(StringUtils.isNotBlank(parser.getComment()));
+            long[] offsets = parser.getIFDOffsets();
+            Assert.assertEquals(offsets.length, planes);
+            for (long offset : offsets) {
+                IFD ifd = parser.getIFD(offset);
+                Assert.assertEquals(ifd.getImageWidth(), sizeX);
+                Assert.assertEquals(ifd.getImageLength(), sizeY);
+            }
+        } finally {
+            parser.getStream().close();
+            exported.delete();
+        }
+    }
+
     /**
      * Generates an <code>OME-XML</code> file.
      * 
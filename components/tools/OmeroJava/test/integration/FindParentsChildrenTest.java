@@ -20,7 +20,11 @@ package integration;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.testng.Assert;
@@ -167,6 +171,22 @@ public class FindParentsChildrenTest extends AbstractServerTest {
         }
     }
 
+    /**
+     * Add the IDs found by a request to the given sets, indexed by class name.
+     * @param found the IDs found by a request, indexed by class name
+     * @param union the sets to which to add the IDs
+     */
+    private static void addAll(Map<String, List<Long>> found, Map<String, Set<Long>> union) {
+        for (final Map.Entry<String, List<Long>> ids : found.entrySet()) {
+            Set<Long> idSet = union.get(ids.getKey());
+            if (idSet == null) {
+                idSet = new HashSet<Long>();
+                union.put(ids.getKey(), idSet);
+            }
+            idSet.addAll(ids.getValue());
+        }
+    }
+
     /**
      * Delete the model objects created by {@link #setup()} once the tests are finished.
      * @throws Exception unexpected
@@ -660,6 +680,52 @@ public class FindParentsChildrenTest extends AbstractServerTest {
         Assert.assertTrue(found.children.isEmpty());
     }
 
+    /**
+     * Find the images, datasets and folders of all the ROIs at once.
+     * The result should be the union of finding them for each ROI alone.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void testFindParentsOfRoisBatched() throws Exception {
+        final String[] parentTypes = new String[] {"Image", "Dataset", "Folder"};
+        final Map<String, Set<Long>> expected = new HashMap<String, Set<Long>>();
+        for (final Roi roi : rois) {
+            final FindParents finder = Requests.findParents().target(roi).parentType(parentTypes).build();
+            addAll(((FoundParents) doChange(finder)).parents, expected);
+        }
+        final FindParents finder = Requests.findParents().target(rois.toArray(new IObject[rois.size()]))
+                .parentType(parentTypes).build();
+        final Map<String, Set<Long>> actual = new HashMap<String, Set<Long>>();
+        addAll(((FoundParents) doChange(finder)).parents, actual);
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(actual.get(ome.model.core.Image.class.getName()).size(), images.size());
+    }
+
+    /**
+     * Find the images and ROIs of all the datasets and folders at once.
+     * The result should be the union of finding them for each container alone.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void testFindChildrenOfContainersBatched() throws Exception {
+        final String[] childTypes = new String[] {"Image", "Roi"};
+        final List<IObject> containers = new ArrayList<IObject>();
+        containers.addAll(datasets);
+        containers.addAll(folders);
+        final Map<String, Set<Long>> expected = new HashMap<String, Set<Long>>();
+        for (final IObject container : containers) {
+            final FindChildren finder = Requests.findChildren().target(container).childType(childTypes).build();
+            addAll(((FoundChildren) doChange(finder)).children, expected);
+        }
+        final FindChildren finder = Requests.findChildren().target(containers.toArray(new IObject[containers.size()]))
+                .childType(childTypes).build();
+        final Map<String, Set<Long>> actual = new HashMap<String, Set<Long>>();
+        addAll(((FoundChildren) doChange(finder)).children, actual);
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(actual.get(ome.model.core.Image.class.getName()).size(), images.size());
+        Assert.assertEquals(actual.get(ome.model.roi.Roi.class.getName()).size(), rois.size());
+    }
+
     /**
      * Do not specify which types of image container to find.
      * The search should fail.
@@ -19,13 +19,25 @@
  */
 package integration;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import Ice.AsyncResult;
 
 import loci.formats.in.FakeReader;
 
@@ -33,6 +45,7 @@ import ome.formats.importer.ImportCandidates;
 import ome.formats.importer.ImportConfig;
 import ome.formats.importer.ImportContainer;
 import ome.formats.importer.ImportLibrary;
+import ome.formats.importer.ImportLibrary.ImportCallback;
 import ome.formats.importer.OMEROWrapper;
 import ome.services.blitz.repo.path.ClientFilePathTransformer;
 import ome.services.blitz.util.ChecksumAlgorithmMapper;
@@ -941,4 +954,95 @@ public class ImportLibraryTest extends AbstractServerImportTest {
         dataset = (Dataset) iQuery.get("Dataset", datasetId);
         Assert.assertEquals(dataset.getDescription().getValue(), newDescription);
     }
+
+    /**
+     * Test that an upload interrupted after some chunks can be resumed with a
+     * new uploader from the size already written, with several writes in
+     * flight and the checksum computed in another thread, and that the
+     * import then succeeds.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void testResumeUploadWithWritesInFlight() throws Exception {
+        login("rw----", AbstractServerTest.MEMBER);
+        final int chunkSize = 16 * 1024;
+        final int window = 4;
+
+        /* create a PNG file large enough to be uploaded in several chunks */
+        final BufferedImage bi = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        final Random random = new Random();
+        for (int x = 0; x < bi.getWidth(); x++) {
+            for (int y = 0; y < bi.getHeight(); y++) {
+                bi.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        final File f = File.createTempFile("testResumeUploadWithWritesInFlight", ".png");
+        f.deleteOnExit();
+        ImageIO.write(bi, "png", f);
+        Assert.assertTrue(f.length() > 4 * chunkSize);
+
+        final ImportLibrary library = new ImportLibrary(createImporter(),
+                new OMEROWrapper(new ImportConfig()));
+        final ImportContainer container = getCandidates(f).getContainers().get(0);
+        final ImportProcessPrx proc = library.createImport(container);
+
+        /* compute the checksum while the file is uploaded */
+        final ChecksumProvider cp = new ChecksumProviderFactoryImpl().getProvider(
+                ChecksumAlgorithmMapper.getChecksumType(proc.getImportSettings().checksumAlgorithm));
+        final ExecutorService threadPool = Executors.newSingleThreadExecutor();
+        final Future<String> checksum;
+        try {
+            checksum = threadPool.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return cp.putFile(f.getAbsolutePath()).checksumAsString();
+                }
+            });
+        } finally {
+            threadPool.shutdown();
+        }
+
+        /* upload the first two chunks then drop the uploader */
+        RawFileStorePrx rfs = proc.getUploader(0);
+        try (InputStream in = new FileInputStream(f)) {
+            for (int i = 0; i < 2; i++) {
+                final byte[] chunk = new byte[chunkSize];
+                Assert.assertEquals(in.read(chunk), chunkSize);
+                rfs.write(chunk, (long) i * chunkSize, chunkSize);
+            }
+        }
+        rfs.close();
+
+        /* resume with a new uploader from what has already been written */
+        rfs = proc.getUploader(0);
+        long offset = rfs.size();
+        Assert.assertEquals(offset, 2L * chunkSize);
+        final Deque<AsyncResult> inFlight = new ArrayDeque<AsyncResult>();
+        try (InputStream in = new FileInputStream(f)) {
+            Assert.assertEquals(in.skip(offset), offset);
+            final byte[] buf = new byte[chunkSize];
+            int read;
+            while ((read = in.read(buf)) > 0) {
+                if (inFlight.size() == window) {
+                    rfs.end_write(inFlight.remove());
+                }
+                final byte[] chunk = new byte[read];
+                System.arraycopy(buf, 0, chunk, 0, read);
+                inFlight.add(rfs.begin_write(chunk, offset, read));
+                offset += read;
+            }
+            while (!inFlight.isEmpty()) {
+                rfs.end_write(inFlight.remove());
+            }
+        }
+        Assert.assertEquals(rfs.size(), f.length());
+        rfs.close();
+
+        /* the server accepts the resumed upload and imports the image */
+        final HandlePrx handle = proc.verifyUpload(Collections.singletonList(checksum.get()));
+        final ImportCallback cb = library.createCallback(proc, handle, container);
+        cb.loop(60 * 60, scalingFactor);
+        Assert.assertNotNull(cb.getImportResponse());
+        Assert.assertEquals(cb.getImportResponse().pixels.size(), 1);
+    }
 }
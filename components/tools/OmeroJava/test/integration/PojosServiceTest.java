@@ -822,6 +822,85 @@ public class PojosServiceTest extends AbstractServerTest {
         }
     }
 
+    /**
+     * Tests that paging through the results of
+     * <code>IQuery.findAllByQuery</code> with a page offset, and of
+     * <code>IQuery.projection</code> with the last identifier seen used as
+     * the ordering token, returns the same results as the unpaged queries
+     * without duplicates or gaps.
+     *
+     * @throws Exception
+     *             unexpected
+     */
+    @Test
+    public void testQueryPaged() throws Exception {
+        final int totalNumberOfAnnotations = 50;
+        final String ns = "testQueryPaged-" + UUID.randomUUID();
+        final List<IObject> toSave = new ArrayList<IObject>(
+                totalNumberOfAnnotations);
+        for (int i = 0; i < totalNumberOfAnnotations; i++) {
+            final CommentAnnotation annotation = new CommentAnnotationI();
+            annotation.setNs(omero.rtypes.rstring(ns));
+            annotation.setTextValue(omero.rtypes.rstring("comment-" + i));
+            toSave.add(annotation);
+        }
+        iUpdate.saveAndReturnArray(toSave);
+
+        final String hql = "FROM CommentAnnotation WHERE ns = :ns ORDER BY id";
+        final List<Long> expected = new ArrayList<Long>();
+        for (final IObject annotation : iQuery.findAllByQuery(hql,
+                new ParametersI().add("ns", omero.rtypes.rstring(ns)))) {
+            expected.add(annotation.getId().getValue());
+        }
+        Assert.assertEquals(expected.size(), totalNumberOfAnnotations);
+
+        for (final int pageSize : new int[] {1, 7, totalNumberOfAnnotations,
+                totalNumberOfAnnotations + 1}) {
+            /* page by offset */
+            final List<Long> byOffset = new ArrayList<Long>();
+            int offset = 0;
+            while (true) {
+                final ParametersI parameters = new ParametersI().page(offset,
+                        pageSize);
+                parameters.add("ns", omero.rtypes.rstring(ns));
+                final List<IObject> page = iQuery.findAllByQuery(hql,
+                        parameters);
+                Assert.assertTrue(page.size() <= pageSize);
+                for (final IObject annotation : page) {
+                    byOffset.add(annotation.getId().getValue());
+                }
+                if (page.size() < pageSize) {
+                    break;
+                }
+                offset += pageSize;
+            }
+            Assert.assertEquals(byOffset, expected);
+
+            /* page by the last identifier seen */
+            final List<Long> byToken = new ArrayList<Long>();
+            long lastId = -1;
+            while (true) {
+                final ParametersI parameters = new ParametersI().page(0,
+                        pageSize);
+                parameters.add("ns", omero.rtypes.rstring(ns));
+                parameters.add("last", omero.rtypes.rlong(lastId));
+                final List<List<RType>> page = iQuery.projection(
+                        "SELECT id FROM CommentAnnotation "
+                        + "WHERE ns = :ns AND id > :last ORDER BY id",
+                        parameters);
+                Assert.assertTrue(page.size() <= pageSize);
+                for (final List<RType> row : page) {
+                    lastId = ((omero.RLong) row.get(0)).getValue();
+                    byToken.add(lastId);
+                }
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+            Assert.assertEquals(byToken, expected);
+        }
+    }
+
     /**
      * Tests the finding of projects filtering by owners.
      *
@@ -30,6 +30,7 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageWriter;
 import javax.imageio.stream.ImageOutputStream;
 
+import omero.api.RawPixelsStorePrx;
 import omero.model.Image;
 import omero.model.Pixels;
 import omero.model.StatsInfo;
@@ -63,6 +64,12 @@ public class PyramidMinMaxTest extends AbstractServerTest {
     /** Wait time in milliseconds **/
     private static final long INTERVAL = 100L;
 
+    /** Maximum number of intervals to wait for a multi-resolution pyramid **/
+    private static final int PYRAMID_WAITS = 20 * WAITS;
+
+    /** Size along the X and Y-axis of an image requiring a pyramid. */
+    private static final int PYRAMID_SIZE = 4000;
+
     /** The collection of files that have to be deleted. */
     private List<File> files;
 
@@ -196,6 +203,35 @@ public class PyramidMinMaxTest extends AbstractServerTest {
         assertMinMaxOnAllChannels(p, 0.0, 255.0);
     }
 
+    /**
+     * Import a <code>PNG</code> big enough to require a pyramid with several
+     * resolution levels, all 0 except the last pixel which is FFFFFF.
+     * Checks that the min/max computed while building the pyramid take
+     * all the tiles into account.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testForMinMaxMultiResolutionPyramid() throws Exception {
+        BufferedImage bi = new BufferedImage(PYRAMID_SIZE, PYRAMID_SIZE,
+                BufferedImage.TYPE_3BYTE_BGR);
+        bi.setRGB(PYRAMID_SIZE - 1, PYRAMID_SIZE - 1,
+                Integer.valueOf("FFFFFF", 16));
+        File f = createImageFileWithBufferedImage(bi, FORMAT);
+        files.add(f);
+        Pixels p = importAndWaitForPyramid(f, FORMAT, PYRAMID_WAITS);
+        assertMinMaxOnAllChannels(p, 0.0, 255.0);
+        RawPixelsStorePrx svc = factory.createRawPixelsStore();
+        try {
+            svc.setPixelsId(p.getId().getValue(), false);
+            Assert.assertTrue(svc.requiresPixelsPyramid());
+            Assert.assertTrue(svc.getResolutionLevels() > 1);
+        } finally {
+            svc.close();
+        }
+    }
+
     /**
      * Check the min and max on all three channels
      */
@@ -227,6 +263,16 @@ public class PyramidMinMaxTest extends AbstractServerTest {
      */
     private Pixels importAndWaitForPyramid(File f, String format)
             throws Exception {
+        return importAndWaitForPyramid(f, format, WAITS);
+    }
+
+    /**
+     * Import an image file of the given format then wait for a pyramid file to
+     * be generated by checking if stats exists, waiting at most the given
+     * number of intervals.
+     */
+    private Pixels importAndWaitForPyramid(File f, String format, int maxWaits)
+            throws Exception {
         List<Pixels> pixels = null;
         try {
             pixels = importFile(f, FORMAT);
@@ -239,7 +285,7 @@ public class PyramidMinMaxTest extends AbstractServerTest {
                 pixels.get(0).getId().getValue());
         StatsInfo stats = p.getChannel(0).getStatsInfo();
         int waits = 0;
-        while (stats == null && waits < WAITS) {
+        while (stats == null && waits < maxWaits) {
             Thread.sleep(INTERVAL);
             waits++;
             p = factory.getPixelsService().retrievePixDescription(
@@ -247,7 +293,7 @@ public class PyramidMinMaxTest extends AbstractServerTest {
             stats = p.getChannel(0).getStatsInfo();
         }
         if (stats == null) {
-            Assert.fail("No pyramid after " + WAITS * INTERVAL / 1000.0 + " seconds");
+            Assert.fail("No pyramid after " + maxWaits * INTERVAL / 1000.0 + " seconds");
         }
         return p;
     }
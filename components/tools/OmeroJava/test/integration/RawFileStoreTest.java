@@ -4,8 +4,13 @@
  */
 package integration;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+
+import Ice.AsyncResult;
 
 import omero.ServerError;
 import omero.api.IScriptPrx;
@@ -79,6 +84,63 @@ public class RawFileStoreTest extends AbstractServerTest {
         svc.close();
     }
 
+    /**
+     * Tests the download of a file spanning several blocks with several
+     * <code>read</code> requests in flight at once, the last block being
+     * shorter than the others. The blocks are read in order and reassembled
+     * by the caller.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     * @see #testDownloadFile()
+     */
+    @Test
+    public void testDownloadFileWithReadsInFlight() throws Exception {
+        final int blockSize = 64 * 1024;
+        final int window = 4;
+        byte[] data = new byte[blockSize * 10 + 123];
+        new Random().nextBytes(data);
+        RawFileStorePrx svc = factory.createRawFileStore();
+        OriginalFile f = mmFactory.createOriginalFile();
+        f = (OriginalFile) iUpdate.saveAndReturnObject(f);
+        svc.setFileId(f.getId().getValue());
+        for (int offset = 0; offset < data.length; offset += blockSize) {
+            int length = Math.min(blockSize, data.length - offset);
+            byte[] block = new byte[length];
+            System.arraycopy(data, offset, block, 0, length);
+            svc.write(block, offset, length);
+        }
+        f = svc.save();
+        long size = f.getSize().getValue();
+        Assert.assertEquals(data.length, size);
+
+        byte[] values = new byte[(int) size];
+        Deque<AsyncResult> inFlight = new ArrayDeque<AsyncResult>();
+        // offset and length of each read in flight
+        Deque<int[]> requested = new ArrayDeque<int[]>();
+        int next = 0;
+        int received = 0;
+        while (received < size) {
+            while (inFlight.size() < window && next < size) {
+                int length = (int) Math.min(blockSize, size - next);
+                inFlight.add(svc.begin_read(next, length));
+                requested.add(new int[] {next, length});
+                next += length;
+            }
+            byte[] block = svc.end_read(inFlight.remove());
+            int[] request = requested.remove();
+            int offset = request[0];
+            Assert.assertNotNull(block);
+            Assert.assertEquals(block.length, request[1],
+                    "short read at offset " + offset);
+            System.arraycopy(block, 0, values, offset, block.length);
+            received += block.length;
+        }
+        Assert.assertEquals(received, data.length);
+        Assert.assertEquals(sha1(values), sha1(data));
+        svc.close();
+    }
+
     /**
      * Tests the download of the scripts. This tests uses the <code>read</code>
      * method.
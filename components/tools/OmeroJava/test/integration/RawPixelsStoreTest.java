@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 
 import ome.api.RawPixelsStore;
 import ome.io.nio.RomioPixelBuffer;
@@ -180,6 +181,53 @@ public class RawPixelsStoreTest extends AbstractServerTest {
                 * ModelMockFactory.SIZE_T, r.length);
     }
 
+    /**
+     * Tests that a hypercube sampling non-contiguous planes, i.e. every
+     * other z-section of some timepoints for several channels, is the
+     * concatenation of the planes retrieved one at a time using
+     * <code>getPlane</code>, in storage order.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testGetPlanesMatchHypercubeWithStep() throws Exception {
+        int sizeC = 2;
+        localSetUp(sizeC, ModelMockFactory.SIZE_X, ModelMockFactory.SIZE_Y,
+                ModelMockFactory.UINT16);
+        int start = 0;
+        for (int t = 0; t < ModelMockFactory.SIZE_T; t++) {
+            for (int c = 0; c < sizeC; c++) {
+                for (int z = 0; z < ModelMockFactory.SIZE_Z; z++) {
+                    svc.setPlane(prepareTestByteArray(planeSize, start++),
+                            z, c, t);
+                }
+            }
+        }
+        int stepZ = 2;
+        int stepT = 3;
+        List<Integer> offset = Arrays.asList(new Integer[] { 0, 0, 1, 0, 0 });
+        List<Integer> size = Arrays.asList(new Integer[] {
+                ModelMockFactory.SIZE_X, ModelMockFactory.SIZE_Y,
+                ModelMockFactory.SIZE_Z - 1, sizeC, ModelMockFactory.SIZE_T });
+        List<Integer> step = Arrays.asList(new Integer[] {
+                1, 1, stepZ, 1, stepT });
+        byte[] r = svc.getHypercube(offset, size, step);
+        Assert.assertNotNull(r);
+        int n = 0;
+        for (int t = 0; t < ModelMockFactory.SIZE_T; t += stepT) {
+            for (int c = 0; c < sizeC; c++) {
+                for (int z = 1; z < ModelMockFactory.SIZE_Z; z += stepZ) {
+                    byte[] plane = svc.getPlane(z, c, t);
+                    Assert.assertEquals(sha1(plane),
+                            sha1(r, n * planeSize, planeSize));
+                    n++;
+                }
+            }
+        }
+        Assert.assertEquals(n * planeSize, r.length);
+    }
+
     /**
      * Tests the <code>getPlaneSize</code> method is accurate.
      *
@@ -588,6 +636,93 @@ public class RawPixelsStoreTest extends AbstractServerTest {
         }
     }
 
+    /**
+     * Tests that the histograms of the quadrants of a plane add up to the
+     * histogram of the whole plane, that requesting several channels at once
+     * gives the same histograms as requesting them one by one, and that the
+     * histograms follow writes to the plane.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testGetHistogramOfRegionsAddUp() throws Exception {
+        final int nChannels = 2;
+        final int sizeX = 64;
+        final int sizeY = 48;
+        localSetUp(nChannels, sizeX, sizeY, ModelMockFactory.UINT8);
+        final int binCount = 64;
+        final int z = 0;
+        final int t = 0;
+
+        // Random values, but every quadrant holds both 0 and 255 so that
+        // the range used for binning is the same for the plane and for
+        // each of its quadrants.
+        Random random = new Random(21);
+        byte[][] planes = new byte[nChannels][sizeX * sizeY];
+        for (int ch = 0; ch < nChannels; ch++) {
+            random.nextBytes(planes[ch]);
+            for (int qx = 0; qx < sizeX; qx += sizeX / 2) {
+                for (int qy = 0; qy < sizeY; qy += sizeY / 2) {
+                    planes[ch][qy * sizeX + qx] = 0;
+                    planes[ch][qy * sizeX + qx + 1] = (byte) 255;
+                }
+            }
+            svc.setPlane(planes[ch], z, ch, t);
+        }
+
+        int[] channels = new int[] { 0, 1 };
+        PlaneDef plane = new PlaneDef(omeis.providers.re.data.PlaneDef.XY, 0,
+                0, z, t, null, -1);
+        Map<Integer, int[]> data = svc.getHistogram(channels, binCount,
+                false, plane);
+        Assert.assertEquals(data.size(), nChannels);
+
+        for (int ch : channels) {
+            int[] counts = data.get(ch);
+            Assert.assertEquals(counts.length, binCount);
+            int total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            Assert.assertEquals(total, sizeX * sizeY);
+
+            // the same channel alone
+            Map<Integer, int[]> single = svc.getHistogram(new int[] { ch },
+                    binCount, false, plane);
+            Assert.assertEquals(single.get(ch), counts);
+
+            // the four quadrants
+            int[] sum = new int[binCount];
+            for (int qx = 0; qx < sizeX; qx += sizeX / 2) {
+                for (int qy = 0; qy < sizeY; qy += sizeY / 2) {
+                    PlaneDef quadrant = new PlaneDef(
+                            omeis.providers.re.data.PlaneDef.XY, 0, 0, z, t,
+                            new RegionDef(qx, qy, sizeX / 2, sizeY / 2), -1);
+                    int[] part = svc.getHistogram(new int[] { ch }, binCount,
+                            false, quadrant).get(ch);
+                    for (int bin = 0; bin < binCount; bin++) {
+                        sum[bin] += part[bin];
+                    }
+                }
+            }
+            Assert.assertEquals(sum, counts);
+        }
+
+        // Invert the first channel, keeping 0 and 255 in every quadrant.
+        int[] before = data.get(0);
+        byte[] inverted = new byte[planes[0].length];
+        for (int i = 0; i < inverted.length; i++) {
+            inverted[i] = (byte) (255 - (planes[0][i] & 0xFF));
+        }
+        svc.setPlane(inverted, z, 0, t);
+        data = svc.getHistogram(channels, binCount, false, plane);
+        Assert.assertFalse(Arrays.equals(data.get(0), before),
+                "The histogram does not reflect the new plane.");
+        Assert.assertEquals(data.get(1), svc.getHistogram(new int[] { 1 },
+                binCount, false, plane).get(1));
+    }
+
     /**
      * Convert an integer into a two byte array
      * 
@@ -644,4 +779,87 @@ public class RawPixelsStoreTest extends AbstractServerTest {
         }
     }
 
+    /**
+     * Extracts a tile from a plane of the default size.
+     *
+     * @param plane
+     *            The plane.
+     * @param x
+     *            The X coordinate of the top-left corner of the tile.
+     * @param y
+     *            The Y coordinate of the top-left corner of the tile.
+     * @param w
+     *            The width of the tile.
+     * @param h
+     *            The height of the tile.
+     * @return See above.
+     */
+    private byte[] getTileFromPlane(byte[] plane, int x, int y, int w, int h) {
+        int bytesPerPixel = planeSize
+                / (ModelMockFactory.SIZE_X * ModelMockFactory.SIZE_Y);
+        int rowLength = w * bytesPerPixel;
+        byte[] tile = new byte[rowLength * h];
+        for (int row = 0; row < h; row++) {
+            System.arraycopy(plane,
+                    ((y + row) * ModelMockFactory.SIZE_X + x) * bytesPerPixel,
+                    tile, row * rowLength, rowLength);
+        }
+        return tile;
+    }
+
+    /**
+     * Tests that reading the same tile several times returns the same data
+     * and that a tile read after a <code>setTile</code> on the same tile
+     * returns the new data.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testGetTileAfterSetTile() throws Exception {
+        int x = 2, y = 3, w = 5, h = 4;
+        byte[] empty = svc.getTile(0, 0, 0, x, y, w, h);
+        byte[] a1 = prepareTestByteArray(empty.length, 0);
+        byte[] b1 = prepareTestByteArray(empty.length, 7);
+        svc.setTile(a1, 0, 0, 0, x, y, w, h);
+        byte[] a2 = svc.getTile(0, 0, 0, x, y, w, h);
+        byte[] a3 = svc.getTile(0, 0, 0, x, y, w, h);
+        Assert.assertEquals(sha1(a1), sha1(a2));
+        Assert.assertEquals(sha1(a2), sha1(a3));
+        svc.setTile(b1, 0, 0, 0, x, y, w, h);
+        byte[] b2 = svc.getTile(0, 0, 0, x, y, w, h);
+        Assert.assertEquals(sha1(b1), sha1(b2));
+        // the other planes are not modified
+        byte[] other = svc.getTile(1, 0, 0, x, y, w, h);
+        Assert.assertEquals(sha1(empty), sha1(other));
+    }
+
+    /**
+     * Tests that a tile read after a <code>setPlane</code> or a
+     * <code>setRegion</code> covering the tile returns the new data.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testGetTileAfterSetPlaneAndSetRegion() throws Exception {
+        int x = 1, y = 1, w = 6, h = 6;
+        byte[] plane1 = prepareTestByteArray(planeSize, 0);
+        svc.setPlane(plane1, 0, 0, 0);
+        byte[] tile = svc.getTile(0, 0, 0, x, y, w, h);
+        Assert.assertEquals(sha1(getTileFromPlane(plane1, x, y, w, h)),
+                sha1(tile));
+
+        byte[] plane2 = prepareTestByteArray(planeSize, 3);
+        svc.setPlane(plane2, 0, 0, 0);
+        tile = svc.getTile(0, 0, 0, x, y, w, h);
+        Assert.assertEquals(sha1(getTileFromPlane(plane2, x, y, w, h)),
+                sha1(tile));
+
+        byte[] plane3 = prepareTestByteArray(planeSize, 11);
+        svc.setRegion(planeSize, svc.getPlaneOffset(0, 0, 0), plane3);
+        tile = svc.getTile(0, 0, 0, x, y, w, h);
+        Assert.assertEquals(sha1(getTileFromPlane(plane3, x, y, w, h)),
+                sha1(tile));
+    }
 }
@@ -66,6 +66,7 @@ import omero.sys.ParametersI;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import org.testng.Assert;
 
@@ -4467,6 +4468,266 @@ public class RenderingEngineTest extends AbstractServerTest {
         re.close();
     }
     
+    /**
+     * Creates a rendering engine for the specified pixels set and loads it,
+     * creating the rendering settings if required.
+     *
+     * @param pixelsId The identifier of the pixels set.
+     * @return See above.
+     * @throws Exception Thrown if an error occurred.
+     */
+    private RenderingEnginePrx loadRenderingEngine(long pixelsId)
+            throws Exception {
+        RenderingEnginePrx re = factory.createRenderingEngine();
+        re.lookupPixels(pixelsId);
+        if (!(re.lookupRenderingDef(pixelsId))) {
+            re.resetDefaultSettings(true);
+            re.lookupRenderingDef(pixelsId);
+        }
+        re.load();
+        return re;
+    }
+
+    /**
+     * Tests that rendering engines opened on the same pixels set, one after
+     * the other or side by side, render the same plane identically and see
+     * the settings saved by one another once loaded.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testRenderingEnginesShareSavedSettings() throws Exception {
+        File f = File.createTempFile("testRenderingEnginesShareSavedSettings",
+                "&pixelType=uint16&sizeX=256&sizeY=128.fake");
+        f.deleteOnExit();
+        Pixels p = importFile(f, "fake").get(0);
+        long id = p.getId().getValue();
+
+        RenderingEnginePrx re1 = loadRenderingEngine(id);
+        RenderingEnginePrx re2 = loadRenderingEngine(id);
+        try {
+            PlaneDef pDef = new PlaneDef();
+            pDef.t = re1.getDefaultT();
+            pDef.z = re1.getDefaultZ();
+            pDef.slice = omero.romio.XY.value;
+
+            // the same settings render the same plane identically
+            int[] before = re1.renderAsPackedInt(pDef);
+            Assert.assertEquals(before.length, p.getSizeX().getValue()
+                    * p.getSizeY().getValue());
+            Assert.assertEquals(re1.renderAsPackedInt(pDef), before);
+            Assert.assertEquals(re2.renderAsPackedInt(pDef), before);
+            for (int i = 0; i < 3; i++) {
+                RenderingEnginePrx re = loadRenderingEngine(id);
+                try {
+                    Assert.assertEquals(re.renderAsPackedInt(pDef), before);
+                } finally {
+                    re.close();
+                }
+            }
+
+            // narrow the window of the first channel and save
+            double start = re1.getChannelWindowStart(0);
+            double end = re1.getChannelWindowEnd(0);
+            re1.setChannelWindow(0, start, start + (end - start) / 4);
+            re1.saveCurrentSettings();
+            int[] after = re1.renderAsPackedInt(pDef);
+            Assert.assertFalse(Arrays.equals(after, before),
+                    "The new window should change the rendered plane.");
+
+            // a new engine sees the saved settings
+            RenderingEnginePrx re3 = loadRenderingEngine(id);
+            try {
+                Assert.assertEquals(re3.getChannelWindowEnd(0),
+                        re1.getChannelWindowEnd(0));
+                Assert.assertEquals(re3.renderAsPackedInt(pDef), after);
+            } finally {
+                re3.close();
+            }
+
+            // an engine loaded before the save sees them once reloaded
+            Assert.assertTrue(re2.lookupRenderingDef(id));
+            re2.load();
+            Assert.assertEquals(re2.renderAsPackedInt(pDef), after);
+        } finally {
+            re1.close();
+            re2.close();
+        }
+    }
+
+    /**
+     * Returns the pixels types to render.
+     *
+     * @return See above.
+     */
+    @DataProvider(name = "pixels types")
+    public Object[][] providePixelsTypes() {
+        String[] types = { "uint8", "int8", "uint16", "int16", "uint32",
+                "int32", "float", "double" };
+        Object[][] cases = new Object[types.length][];
+        for (int i = 0; i < types.length; i++) {
+            cases[i] = new Object[] { types[i] };
+        }
+        return cases;
+    }
+
+    /**
+     * Checks that each pixel of the packed buffer holds the values of the
+     * red, green and blue bands of the RGB buffer.
+     *
+     * @param packed The buffer returned by <code>renderAsPackedInt</code>.
+     * @param rgb The buffer returned by <code>render</code>.
+     */
+    private void checkPackedMatchesBands(int[] packed, RGBBuffer rgb) {
+        Assert.assertEquals(packed.length, rgb.sizeX1 * rgb.sizeX2);
+        for (int i = 0; i < packed.length; i++) {
+            for (int band = 0; band < RGB.length; band++) {
+                int shift = 16 - 8 * band;
+                Assert.assertEquals((packed[i] & RGB[band]) >>> shift,
+                        rgb.bands[band][i] & 0xFF, "pixel " + i + ", band "
+                                + band);
+            }
+        }
+    }
+
+    /**
+     * Tests that <code>renderAsPackedInt</code> and <code>render</code> give
+     * the same colors, pixel by pixel, for a plane and a region of a three
+     * channel image, in each rendering model.
+     *
+     * @param pixelsType The pixels type of the image.
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test(dataProvider = "pixels types")
+    public void testRenderAsPackedIntMatchesRender(String pixelsType)
+            throws Exception {
+        File f = File.createTempFile("testRenderAsPackedIntMatchesRender",
+                "&pixelType=" + pixelsType + "&sizeX=100&sizeY=60&sizeC=3.fake");
+        f.deleteOnExit();
+        Pixels p = importFile(f, "fake").get(0);
+        RenderingEnginePrx re = loadRenderingEngine(p.getId().getValue());
+        try {
+            for (int c = 0; c < re.getPixels().getSizeC().getValue(); c++) {
+                re.setActive(c, true);
+            }
+            PlaneDef pDef = new PlaneDef();
+            pDef.t = re.getDefaultT();
+            pDef.z = re.getDefaultZ();
+            pDef.slice = omero.romio.XY.value;
+            PlaneDef rDef = new PlaneDef();
+            rDef.t = pDef.t;
+            rDef.z = pDef.z;
+            rDef.slice = pDef.slice;
+            rDef.region = new RegionDef(13, 7, 51, 29);
+
+            List<IObject> models = factory.getTypesService().allEnumerations(
+                    RenderingModel.class.getName());
+            for (IObject model : models) {
+                re.setModel((RenderingModel) model);
+                checkPackedMatchesBands(re.renderAsPackedInt(pDef),
+                        re.render(pDef));
+                checkPackedMatchesBands(re.renderAsPackedInt(rDef),
+                        re.render(rDef));
+            }
+        } finally {
+            re.close();
+        }
+    }
+
+    /**
+     * Returns the mean absolute difference, over all pixels and bands,
+     * between the decoded image and the packed buffer.
+     *
+     * @param image The decoded image.
+     * @param packed The buffer returned by <code>renderAsPackedInt</code>.
+     * @return See above.
+     */
+    private double meanDifference(BufferedImage image, int[] packed) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Assert.assertEquals(packed.length, width * height);
+        long total = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int a = image.getRGB(x, y);
+                int b = packed[y * width + x];
+                for (int band = 0; band < RGB.length; band++) {
+                    int shift = 16 - 8 * band;
+                    total += Math.abs(((a & RGB[band]) >>> shift)
+                            - ((b & RGB[band]) >>> shift));
+                }
+            }
+        }
+        return (double) total / (packed.length * RGB.length);
+    }
+
+    /**
+     * Tests to render large regions, spanning many tiles and not aligned
+     * on them, using the <code>renderCompressed</code> method at various
+     * compression levels. The decoded images must have the size of the
+     * region, be close to the uncompressed rendering and be the same each
+     * time the region is rendered.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testRenderCompressedLargeRegions() throws Exception {
+        final int sizeX = 3000;
+        final int sizeY = 2000;
+        File f = File.createTempFile("testRenderCompressedLargeRegions",
+                "&pixelType=uint8&sizeX=" + sizeX + "&sizeY=" + sizeY
+                + "&sizeC=3.fake");
+        f.deleteOnExit();
+        Pixels p = importFile(f, "fake").get(0);
+        RenderingEnginePrx re = loadRenderingEngine(p.getId().getValue());
+        try {
+            for (int c = 0; c < re.getPixels().getSizeC().getValue(); c++) {
+                re.setActive(c, true);
+            }
+            RegionDef[] regions = new RegionDef[] {
+                    new RegionDef(0, 0, sizeX, sizeY),
+                    new RegionDef(257, 129, 1777, 1031),
+                    new RegionDef(sizeX - 1001, sizeY - 999, 1001, 999) };
+            float[] levels = new float[] { 0.25f, 0.5f, 0.9f, 1.0f };
+            for (RegionDef r : regions) {
+                PlaneDef pDef = new PlaneDef();
+                pDef.t = re.getDefaultT();
+                pDef.z = re.getDefaultZ();
+                pDef.slice = omero.romio.XY.value;
+                pDef.region = r;
+                int[] packed = re.renderAsPackedInt(pDef);
+                int lowestSize = -1;
+                for (float level : levels) {
+                    re.setCompressionLevel(level);
+                    byte[] values = re.renderCompressed(pDef);
+                    Assert.assertNotNull(values);
+                    Assert.assertEquals(re.renderCompressed(pDef), values,
+                            "Rendering the same region twice differs.");
+                    BufferedImage image = createImage(values);
+                    Assert.assertNotNull(image);
+                    Assert.assertEquals(image.getWidth(), r.width);
+                    Assert.assertEquals(image.getHeight(), r.height);
+                    if (lowestSize < 0) {
+                        lowestSize = values.length;
+                    } else {
+                        Assert.assertTrue(values.length >= lowestSize,
+                                "Quality " + level + " is smaller than quality "
+                                        + levels[0]);
+                    }
+                    if (level == 1.0f) {
+                        double diff = meanDifference(image, packed);
+                        Assert.assertTrue(diff < 8, "Mean difference " + diff);
+                    }
+                }
+            }
+        } finally {
+            re.close();
+        }
+    }
+
     //Inner class used to store rnd settings for channels
     class ChannelBindingPrx {
         Family family;
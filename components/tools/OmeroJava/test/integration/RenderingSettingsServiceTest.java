@@ -7,11 +7,14 @@ package integration;
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import ome.formats.model.UnitsFactory;
+import omero.RLong;
+import omero.RType;
 import omero.api.IRenderingSettingsPrx;
 import omero.api.IScriptPrx;
 import omero.api.RenderingEnginePrx;
@@ -24,6 +27,7 @@ import omero.model.DatasetImageLink;
 import omero.model.DatasetImageLinkI;
 import omero.model.IObject;
 import omero.model.Image;
+import omero.model.ImageI;
 import omero.model.LengthI;
 import omero.model.LogicalChannel;
 import omero.model.OriginalFile;
@@ -313,6 +317,74 @@ public class RenderingSettingsServiceTest extends AbstractServerTest {
         Assert.assertTrue(v.isEmpty());
     }
 
+    /**
+     * Tests to set the default rendering settings for a dataset containing
+     * many images then to apply the settings of one image to all the others.
+     * Every image must be handled and have exactly one rendering definition.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testResetDefaultInSetForManyImages() throws Exception {
+        final int count = 20;
+        Dataset d = (Dataset) iUpdate.saveAndReturnObject(mmFactory
+                .simpleDatasetData().asIObject());
+        List<Long> imageIds = new ArrayList<Long>();
+        List<Long> pixelsIds = new ArrayList<Long>();
+        List<IObject> links = new ArrayList<IObject>();
+        for (int i = 0; i < count; i++) {
+            Image image = createBinaryImage();
+            imageIds.add(image.getId().getValue());
+            pixelsIds.add(image.getPrimaryPixels().getId().getValue());
+            DatasetImageLink l = new DatasetImageLinkI();
+            l.setChild(new ImageI(image.getId().getValue(), false));
+            l.setParent(new DatasetI(d.getId().getValue(), false));
+            links.add(l);
+        }
+        iUpdate.saveArray(links);
+
+        IRenderingSettingsPrx prx = factory.getRenderingSettingsService();
+        ParametersI param = new ParametersI();
+        param.addIds(pixelsIds);
+        String sql = "select rdef.pixels.id, count(rdef) from RenderingDef "
+                + "as rdef where rdef.pixels.id in (:ids) "
+                + "group by rdef.pixels.id";
+
+        // twice, to check that resetting existing settings does not add more
+        for (int run = 0; run < 2; run++) {
+            List<Long> v = prx.resetDefaultsInSet(Dataset.class.getName(),
+                    Arrays.asList(d.getId().getValue()));
+            Assert.assertNotNull(v);
+            Assert.assertEquals(new HashSet<Long>(v),
+                    new HashSet<Long>(imageIds));
+            List<List<RType>> counts = iQuery.projection(sql, param);
+            Assert.assertEquals(counts.size(), count);
+            for (List<RType> row : counts) {
+                Assert.assertEquals(((RLong) row.get(1)).getValue(), 1L);
+            }
+        }
+
+        // apply the settings of the first image to the others
+        RenderingDef def = factory.getPixelsService().retrieveRndSettings(
+                pixelsIds.get(0));
+        List<Long> targets = imageIds.subList(1, count);
+        Map<Boolean, List<Long>> m = prx.applySettingsToSet(pixelsIds.get(0),
+                Image.class.getName(), targets);
+        Assert.assertNotNull(m);
+        List<Long> success = m.get(Boolean.TRUE);
+        List<Long> failure = m.get(Boolean.FALSE);
+        Assert.assertNotNull(success);
+        Assert.assertNotNull(failure);
+        Assert.assertEquals(new HashSet<Long>(success),
+                new HashSet<Long>(targets));
+        Assert.assertTrue(failure.isEmpty());
+        for (long pixelsId : pixelsIds.subList(1, count)) {
+            compareRenderingDef(def, factory.getPixelsService()
+                    .retrieveRndSettings(pixelsId));
+        }
+    }
+
     /**
      * Tests to apply the rendering settings to a collection of images. Tests
      * the <code>ApplySettingsToSet</code> method.
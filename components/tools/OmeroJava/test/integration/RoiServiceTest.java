@@ -16,6 +16,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
 
 import omero.ApiUsageException;
@@ -771,4 +772,119 @@ public class RoiServiceTest extends AbstractServerTest {
             assertEquals(calcStats.mean[0], expStats.mean[0]);
         }
     }
+
+    /**
+     * Tests the stats of many overlapping rectangles on a multi-channel image
+     * against the values computed on the client, and that computing the stats
+     * of all the shapes at once gives the same result as computing them a few
+     * shapes at a time.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testStatsManyOverlappingShapes() throws Exception {
+        final int size = 256;
+        final int sizeC = 2;
+        final int rois = 50;
+        final int shapesPerRoi = 10;
+        Image img = mmFactory.createImage(
+            size, size, 1, 1, sizeC, ModelMockFactory.UINT8);
+        img = (Image) iUpdate.saveAndReturnObject(img);
+
+        // values in [0, 100] on both channels, one channel the reverse of
+        // the other
+        final byte[][] planes = new byte[sizeC][size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                planes[0][y * size + x] = (byte) ((x + y) % 101);
+                planes[1][y * size + x] = (byte) (100 - (x + y) % 101);
+            }
+        }
+        RawPixelsStorePrx rawPixStore = factory.createRawPixelsStore();
+        try {
+            rawPixStore.setPixelsId(img.getPrimaryPixels().getId().getValue(), true);
+            for (int c = 0; c < sizeC; c++) {
+                rawPixStore.setPlane(planes[c], 0, c, 0);
+            }
+        } finally {
+            rawPixStore.close();
+        }
+
+        // rectangles at random positions, overlapping one another
+        final Random random = new Random(size);
+        final List<IObject> toSave = new ArrayList<IObject>(rois);
+        for (int r = 0; r < rois; r++) {
+            final Roi roi = new RoiI();
+            roi.setImage((Image) img.proxy());
+            for (int s = 0; s < shapesPerRoi; s++) {
+                final Rectangle rect = new RectangleI();
+                final int w = 1 + random.nextInt(64);
+                final int h = 1 + random.nextInt(64);
+                rect.setX(omero.rtypes.rdouble(random.nextInt(size - w)));
+                rect.setY(omero.rtypes.rdouble(random.nextInt(size - h)));
+                rect.setWidth(omero.rtypes.rdouble(w));
+                rect.setHeight(omero.rtypes.rdouble(h));
+                rect.setTheZ(omero.rtypes.rint(0));
+                rect.setTheT(omero.rtypes.rint(0));
+                roi.addShape(rect);
+            }
+            toSave.add(roi);
+        }
+        final Map<Long, Rectangle> rectangles = new HashMap<Long, Rectangle>();
+        for (final IObject saved : iUpdate.saveAndReturnArray(toSave)) {
+            for (final Shape shape : ((Roi) saved).copyShapes()) {
+                rectangles.put(shape.getId().getValue(), (Rectangle) shape);
+            }
+        }
+        assertEquals(rectangles.size(), rois * shapesPerRoi);
+
+        final IRoiPrx svc = factory.getRoiService();
+        final int[] channels = new int[] {0, 1};
+        final List<Long> ids = new ArrayList<Long>(rectangles.keySet());
+        final ShapeStats[] stats = svc.getShapeStatsRestricted(ids, 0, 0, channels);
+        assertEquals(stats.length, ids.size());
+        final Map<Long, ShapeStats> statsById = new HashMap<Long, ShapeStats>();
+        for (final ShapeStats calcStats : stats) {
+            statsById.put(calcStats.shapeId, calcStats);
+            final Rectangle rect = rectangles.get(calcStats.shapeId);
+            final int x0 = (int) rect.getX().getValue();
+            final int y0 = (int) rect.getY().getValue();
+            final int w = (int) rect.getWidth().getValue();
+            final int h = (int) rect.getHeight().getValue();
+            for (int c = 0; c < channels.length; c++) {
+                double min = Double.MAX_VALUE, max = -Double.MAX_VALUE, sum = 0;
+                for (int y = y0; y < y0 + h; y++) {
+                    for (int x = x0; x < x0 + w; x++) {
+                        final double v = planes[channels[c]][y * size + x];
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                        sum += v;
+                    }
+                }
+                assertEquals(calcStats.pointsCount[c], (long) w * h);
+                assertEquals(calcStats.min[c], min);
+                assertEquals(calcStats.max[c], max);
+                assertEquals(calcStats.sum[c], sum);
+            }
+        }
+
+        // the same stats when asking for a few shapes at a time
+        for (int i = 0; i < ids.size(); i += shapesPerRoi / 2) {
+            final List<Long> subset = ids.subList(i,
+                    Math.min(ids.size(), i + shapesPerRoi / 2));
+            for (final ShapeStats calcStats :
+                svc.getShapeStatsRestricted(subset, 0, 0, channels)) {
+                final ShapeStats allStats = statsById.get(calcStats.shapeId);
+                for (int c = 0; c < channels.length; c++) {
+                    assertEquals(calcStats.pointsCount[c], allStats.pointsCount[c]);
+                    assertEquals(calcStats.min[c], allStats.min[c]);
+                    assertEquals(calcStats.max[c], allStats.max[c]);
+                    assertEquals(calcStats.sum[c], allStats.sum[c]);
+                    assertEquals(calcStats.mean[c], allStats.mean[c]);
+                    assertEquals(calcStats.stdDev[c], allStats.stdDev[c]);
+                }
+            }
+        }
+    }
 }
@@ -4,7 +4,11 @@
  */
 package integration;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import omero.ApiUsageException;
@@ -71,6 +75,37 @@ public class TableTest extends AbstractServerTest {
         return newColumns;
     }
 
+    /**
+     * Returns the rows in the given range whose values satisfy
+     * <code>min &lt;= value &lt; max</code>, in increasing order.
+     *
+     * @param values
+     *            The values of the column.
+     * @param min
+     *            The inclusive lower bound.
+     * @param max
+     *            The exclusive upper bound.
+     * @param start
+     *            The first row to consider.
+     * @param stop
+     *            The row after the last row to consider.
+     * @return See above.
+     */
+    private long[] findRows(List<Long> values, long min, long max, int start,
+            int stop) {
+        List<Long> rows = new ArrayList<Long>();
+        for (int i = start; i < stop; i++) {
+            if (values.get(i) >= min && values.get(i) < max) {
+                rows.add((long) i);
+            }
+        }
+        long[] result = new long[rows.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = rows.get(i);
+        }
+        return result;
+    }
+
     /**
      * Create/initialize a new myTable.
      *
@@ -237,6 +272,82 @@ public class TableTest extends AbstractServerTest {
         Assert.assertEquals(myStrings.values[(int) ids[0]], "one");
     }
 
+    /**
+     * Tests <code>getWhereList()</code> with equality and range conditions,
+     * and with a range of rows, on data added in several batches and then
+     * updated. The rows found must match the rows found by scanning the
+     * values on the client.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testGetWhereListRangesAcrossAddData() throws Exception {
+        final int batches = 4;
+        final int rowsPerBatch = 250;
+        final int total = batches * rowsPerBatch;
+        List<Long> uidValues = new ArrayList<Long>(total);
+        for (long i = 0; i < total; i++) {
+            uidValues.add(i);
+        }
+        Collections.shuffle(uidValues);
+        List<Long> longValues = new ArrayList<Long>(total);
+        for (int b = 0; b < batches; b++) {
+            Column[] newRows = createColumns(rowsPerBatch);
+            LongColumn uids = (LongColumn) newRows[UID_COLUMN];
+            LongColumn myLongs = (LongColumn) newRows[LONG_COLUMN];
+            StringColumn myStrings = (StringColumn) newRows[STRING_COLUMN];
+            for (int i = 0; i < rowsPerBatch; i++) {
+                long uid = uidValues.get(b * rowsPerBatch + i);
+                uids.values[i] = uid;
+                myLongs.values[i] = uid % 10;
+                myStrings.values[i] = Long.toString(uid);
+                longValues.add(uid % 10);
+            }
+            myTable.addData(newRows);
+        }
+        Assert.assertEquals(myTable.getNumberOfRows(), total);
+
+        // equality
+        for (long uid : new long[] {0, 1, total / 2, total - 1}) {
+            long[] ids = myTable.getWhereList("(Uid==" + uid + ")", null, 0,
+                    total, 1);
+            Assert.assertEquals(ids,
+                    findRows(uidValues, uid, uid + 1, 0, total));
+        }
+        // no match
+        long[] ids = myTable.getWhereList("(Uid==" + total + ")", null, 0,
+                total, 1);
+        Assert.assertEquals(ids.length, 0);
+        // range over the whole table and over a range of rows
+        ids = myTable.getWhereList("(Uid>=100) & (Uid<300)", null, 0,
+                total, 1);
+        Assert.assertEquals(ids, findRows(uidValues, 100, 300, 0, total));
+        ids = myTable.getWhereList("(Uid>=100) & (Uid<300)", null,
+                rowsPerBatch, 3 * rowsPerBatch, 1);
+        Assert.assertEquals(ids, findRows(uidValues, 100, 300, rowsPerBatch,
+                3 * rowsPerBatch));
+        // range on a column with many equal values
+        ids = myTable.getWhereList("(MyLongColumn>=3) & (MyLongColumn<5)",
+                null, 0, total, 1);
+        Assert.assertEquals(ids, findRows(longValues, 3, 5, 0, total));
+
+        // update a row and check that the conditions see the new value
+        int row = (int) findRows(uidValues, 0, 1, 0, total)[0];
+        Data myData = myTable.read(ColNumbers, row, row + 1);
+        ((LongColumn) myData.columns[UID_COLUMN]).values[0] = total;
+        myTable.update(myData);
+        uidValues.set(row, (long) total);
+        ids = myTable.getWhereList("(Uid==" + total + ")", null, 0,
+                total, 1);
+        Assert.assertEquals(ids, new long[] {row});
+        ids = myTable.getWhereList("(Uid==0)", null, 0, total, 1);
+        Assert.assertEquals(ids.length, 0);
+        ids = myTable.getWhereList("(Uid<300)", null, 0, total, 1);
+        Assert.assertEquals(ids, findRows(uidValues, 0, 300, 0, total));
+        Assert.assertTrue(Arrays.binarySearch(ids, row) < 0);
+    }
+
     /**
      * Tests <code>readCoordinates()</code> with zero rows in table. This throws
      * an exception because there's no need to try to read zero data.
@@ -6,13 +6,16 @@ package integration;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import ome.services.scripts.ScriptRepoHelper;
+import omero.RType;
 import omero.ServerError;
 import omero.ValidationException;
 import omero.api.IQueryPrx;
@@ -2121,4 +2124,77 @@ public class UpdateServiceTest extends AbstractServerTest {
         final OriginalFile file = (OriginalFile) iQuery.findByString("OriginalFile", "name", userDirectory);
         Assert.assertEquals(file.getRepo().getValue(), ScriptRepoHelper.SCRIPT_REPO);
     }
+
+    /**
+     * Tests that <code>saveAndReturnIds</code> returns the identifiers of a
+     * large number of new objects of different types, interleaved, in the
+     * order in which they were passed.
+     *
+     * @throws Exception
+     *             Thrown if an error occurred.
+     */
+    @Test
+    public void testSaveAndReturnIdsInterleavedTypes() throws Exception {
+        final int count = 1000;
+        Image image = (Image) iUpdate.saveAndReturnObject(mmFactory
+                .simpleImage());
+        List<IObject> objects = new ArrayList<IObject>(count);
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                Roi roi = new RoiI();
+                roi.setName(omero.rtypes.rstring("roi-" + i));
+                roi.setImage((Image) image.proxy());
+                Rectangle rect = new RectangleI();
+                rect.setX(omero.rtypes.rdouble(i));
+                rect.setY(omero.rtypes.rdouble(i));
+                rect.setWidth(omero.rtypes.rdouble(1));
+                rect.setHeight(omero.rtypes.rdouble(1));
+                roi.addShape(rect);
+                objects.add(roi);
+            } else {
+                CommentAnnotation annotation = new CommentAnnotationI();
+                annotation.setTextValue(omero.rtypes.rstring("comment-" + i));
+                ImageAnnotationLink link = new ImageAnnotationLinkI();
+                link.setParent((Image) image.proxy());
+                link.setChild(annotation);
+                objects.add(link);
+            }
+        }
+        List<Long> ids = iUpdate.saveAndReturnIds(objects);
+        Assert.assertEquals(ids.size(), count);
+        Assert.assertEquals(new HashSet<Long>(ids).size(), count);
+
+        List<Long> roiIds = new ArrayList<Long>();
+        List<Long> linkIds = new ArrayList<Long>();
+        for (int i = 0; i < count; i++) {
+            (i % 2 == 0 ? roiIds : linkIds).add(ids.get(i));
+        }
+        Map<Long, String> roiNames = new HashMap<Long, String>();
+        for (List<RType> row : iQuery.projection(
+                "SELECT r.id, r.name FROM Roi r WHERE r.id IN (:ids)",
+                new ParametersI().addIds(roiIds))) {
+            roiNames.put(((omero.RLong) row.get(0)).getValue(),
+                    ((omero.RString) row.get(1)).getValue());
+        }
+        Map<Long, String> comments = new HashMap<Long, String>();
+        for (List<RType> row : iQuery.projection(
+                "SELECT l.id, l.child.textValue FROM ImageAnnotationLink l "
+                + "WHERE l.id IN (:ids) AND l.parent.id = :image",
+                new ParametersI().addIds(linkIds).add("image",
+                        image.getId()))) {
+            comments.put(((omero.RLong) row.get(0)).getValue(),
+                    ((omero.RString) row.get(1)).getValue());
+        }
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                Assert.assertEquals(roiNames.get(ids.get(i)), "roi-" + i);
+            } else {
+                Assert.assertEquals(comments.get(ids.get(i)), "comment-" + i);
+            }
+        }
+        List<IObject> shapes = iQuery.findAllByQuery(
+                "FROM Shape s WHERE s.roi.id IN (:ids)",
+                new ParametersI().addIds(roiIds));
+        Assert.assertEquals(shapes.size(), roiIds.size());
+    }
 }
@@ -56,10 +56,12 @@ import omero.model.PlateAcquisitionI;
 import omero.model.PlateI;
 import omero.model.Project;
 import omero.model.ProjectI;
+import omero.model.RectangleI;
 import omero.model.Roi;
 import omero.model.RoiI;
 import omero.model.Screen;
 import omero.model.ScreenI;
+import omero.model.Shape;
 import omero.model.Well;
 import omero.model.WellI;
 import omero.model.WellSample;
@@ -977,4 +979,81 @@ public class HierarchyDeleteTest extends AbstractServerTest {
         /* clean up */
         doChange(Requests.delete().target(folderCastor, folderPollux).build());
     }
+
+    /**
+     * Test that deleting a plate with many wells, fields and ROIs deletes
+     * every object below the plate and nothing else.
+     * @throws Exception unexpected
+     */
+    @Test
+    public void testDeletePlateWithFieldsAndRois() throws Exception {
+        newUserAndGroup("rw----");
+
+        /* an 8 x 12 plate with two fields per well, one plate acquisition and two ROIs per image */
+        Plate plate = mmFactory.createPlate(8, 12, 2, 1, false);
+        plate = (Plate) iUpdate.saveAndReturnObject(plate).proxy();
+
+        final List<Long> wellIds = new ArrayList<Long>();
+        final List<Long> wellSampleIds = new ArrayList<Long>();
+        final List<Long> imageIds = new ArrayList<Long>();
+        for (final List<RType> row : iQuery.projection(
+                "SELECT well.id, id, image.id FROM WellSample WHERE well.plate.id = :id",
+                new ParametersI().addId(plate.getId()))) {
+            wellIds.add(((RLong) row.get(0)).getValue());
+            wellSampleIds.add(((RLong) row.get(1)).getValue());
+            imageIds.add(((RLong) row.get(2)).getValue());
+        }
+        Assert.assertEquals(imageIds.size(), 8 * 12 * 2);
+        final List<Long> plateAcquisitionIds = new ArrayList<Long>();
+        for (final List<RType> row : iQuery.projection(
+                "SELECT id FROM PlateAcquisition WHERE plate.id = :id",
+                new ParametersI().addId(plate.getId()))) {
+            plateAcquisitionIds.add(((RLong) row.get(0)).getValue());
+        }
+        Assert.assertEquals(plateAcquisitionIds.size(), 1);
+
+        final List<IObject> rois = new ArrayList<IObject>();
+        for (final Long imageId : imageIds) {
+            for (int r = 0; r < 2; r++) {
+                final Roi roi = new RoiI();
+                roi.setImage(new ImageI(imageId, false));
+                for (int s = 0; s < 3; s++) {
+                    final RectangleI rectangle = new RectangleI();
+                    rectangle.setX(rtypes.rdouble(s));
+                    rectangle.setY(rtypes.rdouble(r));
+                    rectangle.setWidth(rtypes.rdouble(5));
+                    rectangle.setHeight(rtypes.rdouble(5));
+                    roi.addShape(rectangle);
+                }
+                rois.add(roi);
+            }
+        }
+        final List<Long> roiIds = new ArrayList<Long>();
+        for (final IObject roi : iUpdate.saveAndReturnArray(rois)) {
+            roiIds.add(roi.getId().getValue());
+        }
+        final List<Long> shapeIds = new ArrayList<Long>();
+        for (final List<RType> row : iQuery.projection(
+                "SELECT id FROM Shape WHERE roi.id IN (:ids)", new ParametersI().addIds(roiIds))) {
+            shapeIds.add(((RLong) row.get(0)).getValue());
+        }
+        Assert.assertEquals(shapeIds.size(), roiIds.size() * 3);
+
+        /* an unrelated plate that must survive the deletion */
+        final Plate otherPlate = (Plate) iUpdate.saveAndReturnObject(mmFactory.createPlate(1, 1, 1, 0, false)).proxy();
+
+        doChange(Requests.delete().target(plate).build());
+
+        assertDoesNotExist(plate);
+        Assert.assertEquals(countInstances(Well.class, wellIds), 0);
+        Assert.assertEquals(countInstances(WellSample.class, wellSampleIds), 0);
+        Assert.assertEquals(countInstances(PlateAcquisition.class, plateAcquisitionIds), 0);
+        Assert.assertEquals(countInstances(Image.class, imageIds), 0);
+        Assert.assertEquals(countInstances(Roi.class, roiIds), 0);
+        Assert.assertEquals(countInstances(Shape.class, shapeIds), 0);
+        assertExists(otherPlate);
+
+        /* clean up */
+        doChange(Requests.delete().target(otherPlate).build());
+    }
 }
@@ -25,7 +25,10 @@ import integration.ModelMockFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -421,6 +424,54 @@ public class BrowseFacilityTest extends GatewayTest {
          Assert.assertEquals(((ImageData)res.iterator().next()).getName(), anImageName);
      }
     
+    @Test
+    public void testGetContainerChildren() throws Exception {
+        // a project with datasets holding 0, 1 and 2 images
+        // and a screen with 2 plates
+        ProjectData p = createProject(rootCtx);
+        Set<Long> datasetIds = new HashSet<Long>();
+        Map<Long, Integer> imageCounts = new HashMap<Long, Integer>();
+        for (int i = 0; i < 3; i++) {
+            DatasetData d = createDataset(rootCtx, p);
+            for (int j = 0; j < i; j++)
+                createImage(rootCtx, d);
+            datasetIds.add(d.getId());
+            imageCounts.put(d.getId(), i);
+        }
+        ScreenData s = createScreen(rootCtx);
+        Set<Long> plateIds = new HashSet<Long>();
+        for (int i = 0; i < 2; i++)
+            plateIds.add(createPlate(rootCtx, s).getId());
+
+        Collection<ProjectData> projects = browseFacility.getProjects(rootCtx,
+                Collections.singleton(p.getId()));
+        Assert.assertEquals(projects.size(), 1);
+        Set<Long> loadedIds = new HashSet<Long>();
+        for (DatasetData d : projects.iterator().next().getDatasets()) {
+            Assert.assertNull(d.getImages(), "Images should not have been loaded at this point!");
+            loadedIds.add(d.getId());
+        }
+        Assert.assertEquals(loadedIds, datasetIds);
+
+        int total = 0;
+        for (Map.Entry<Long, Integer> e : imageCounts.entrySet()) {
+            Collection<ImageData> images = browseFacility.getImagesForDatasets(
+                    rootCtx, Collections.singleton(e.getKey()));
+            Assert.assertEquals(images.size(), e.getValue().intValue());
+            total += e.getValue();
+        }
+        Assert.assertEquals(browseFacility.getImagesForDatasets(rootCtx,
+                datasetIds).size(), total);
+
+        Collection<ScreenData> screens = browseFacility.getScreens(rootCtx,
+                Collections.singleton(s.getId()));
+        Assert.assertEquals(screens.size(), 1);
+        loadedIds.clear();
+        for (PlateData pl : screens.iterator().next().getPlates())
+            loadedIds.add(pl.getId());
+        Assert.assertEquals(loadedIds, plateIds);
+    }
+
     private void initData() throws Exception {
         this.group = createGroup();
         this.user = createExperimenter(group);
@@ -283,6 +283,48 @@ public class TablesFacilityTest extends GatewayTest {
     }
     
     @Test(dependsOnMethods = { "testThreshold" })
+    /**
+     * Read the whole table in consecutive row ranges and check that the
+     * ranges put back together match the original data
+     * 
+     * @throws Exception
+     */
+    public void testReadTableInRanges() throws Exception {
+        Object[][] origData = original.getData();
+        int[] columns = new int[nCols];
+        for (int c = 0; c < nCols; c++)
+            columns[c] = c;
+
+        int chunk = TablesFacility.DEFAULT_MAX_ROWS_TO_FETCH / 3;
+        int next = 0;
+        while (next < nRows) {
+            int rowTo = Math.min(next + chunk, nRows) - 1;
+            TableData td = tablesFacility.getTable(rootCtx,
+                    original.getOriginalFileId(), next, rowTo, columns);
+            Assert.assertEquals(td.getOffset(), next);
+            Assert.assertEquals(td.getColumns().length, nCols);
+
+            Object[][] data = td.getData();
+            int n = data[0].length;
+            Assert.assertTrue(n > 0, "No rows returned from row " + next);
+            for (int c = 0; c < nCols; c++) {
+                Assert.assertEquals(data[c].length, n);
+                for (int r = 0; r < n; r++) {
+                    Object expected = origData[c][next + r];
+                    if (expected instanceof Double[]) {
+                        Assert.assertEquals((Double[]) data[c][r],
+                                (Double[]) expected);
+                    } else {
+                        Assert.assertEquals(data[c][r], expected);
+                    }
+                }
+            }
+            next += n;
+        }
+        Assert.assertEquals(next, nRows);
+    }
+
+    @Test(dependsOnMethods = { "testReadTableInRanges" })
     public void testUpdateTable() throws Exception {
         // modify values for row 10 to 20, columns 5, 6 and 7
         TableData td = tablesFacility.getTable(rootCtx,
@@ -33,9 +33,14 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Collections of tests for the <code>ThumbnailStore</code> service.
@@ -64,23 +69,21 @@ public class BatchLoadingTest extends AbstractServerTest {
     }
 
     /**
-     * Tests thumbnailService methods: getThumbnailSet(rint, rint, list<long>)
-     * and getThumbnailByLongestSideSet(rint, list<long>)
+     * Imports the same graphics image several times.
      *
+     * @param count The number of images to import.
+     * @return The identifiers of the imported pixels sets.
      * @throws Exception Thrown if an error occurred.
      */
-    @Test
-    public void testGetThumbnailSet() throws Exception {
-        ThumbnailStorePrx svc = factory.createThumbnailStore();
+    private List<Long> importImages(int count) throws Exception {
         // first import an image already tested see ImporterTest
         String format = ModelMockFactory.FORMATS[0];
         File f = File.createTempFile("testImportGraphicsImages" + format, "."
                 + format);
         mmFactory.createImageFile(f, format);
         List<Long> pixelsIds = new ArrayList<Long>();
-        int thumbNailCount = 20;
         try {
-            for (int i = 0; i < thumbNailCount; i++) {
+            for (int i = 0; i < count; i++) {
                 List<Pixels> pxls = importFile(importer, f, format);
                 pixelsIds.add(pxls.get(0).getId().getValue());
             }
@@ -88,6 +91,20 @@ public class BatchLoadingTest extends AbstractServerTest {
             throw new Exception("cannot import image", e);
         }
         f.deleteOnExit();
+        return pixelsIds;
+    }
+
+    /**
+     * Tests thumbnailService methods: getThumbnailSet(rint, rint, list<long>)
+     * and getThumbnailByLongestSideSet(rint, list<long>)
+     *
+     * @throws Exception Thrown if an error occurred.
+     */
+    @Test
+    public void testGetThumbnailSet() throws Exception {
+        ThumbnailStorePrx svc = factory.createThumbnailStore();
+        int thumbNailCount = 20;
+        List<Long> pixelsIds = importImages(thumbNailCount);
 
         int sizeX = 48;
         int sizeY = 48;
@@ -169,4 +186,59 @@ public class BatchLoadingTest extends AbstractServerTest {
         Assert.assertEquals(thumbnails.get(pixelsIdβ), thumbnail);
     }
 
+    /**
+     * Tests that the thumbnails returned by
+     * getThumbnailByLongestSideSet(rint, list<long>) are the same as the
+     * thumbnails retrieved one pixels set at a time by concurrent
+     * <code>ThumbnailStore</code>s i.e. that the batch result does not depend
+     * on the order in which the thumbnails are generated.
+     *
+     * @throws Exception Thrown if an error occurred.
+     */
+    @Test
+    public void testGetThumbnailSetMatchesConcurrentSingleThumbnails()
+            throws Exception {
+        int thumbNailCount = 20;
+        final int size = 48;
+        List<Long> pixelsIds = importImages(thumbNailCount);
+        ExecutorService threadPool = Executors.newFixedThreadPool(4);
+        Map<Long, Future<byte[]>> futures = new HashMap<Long, Future<byte[]>>();
+        try {
+            for (final Long pixelsId : pixelsIds) {
+                futures.put(pixelsId, threadPool.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws Exception {
+                        ThumbnailStorePrx svc = factory.createThumbnailStore();
+                        try {
+                            Utils.setThumbnailStoreToPixels(svc, pixelsId);
+                            return svc.getThumbnailByLongestSide(
+                                    omero.rtypes.rint(size));
+                        } finally {
+                            svc.close();
+                        }
+                    }
+                }));
+            }
+        } finally {
+            threadPool.shutdown();
+        }
+        Map<Long, byte[]> singles = new HashMap<Long, byte[]>();
+        for (Map.Entry<Long, Future<byte[]>> e : futures.entrySet()) {
+            singles.put(e.getKey(), e.getValue().get());
+        }
+        Map<Long, byte[]> thmbs;
+        ThumbnailStorePrx svc = factory.createThumbnailStore();
+        try {
+            thmbs = svc.getThumbnailByLongestSideSet(omero.rtypes.rint(size),
+                    pixelsIds);
+        } finally {
+            svc.close();
+        }
+        Assert.assertEquals(thmbs.keySet(), singles.keySet());
+        for (Long pixelsId : pixelsIds) {
+            byte[] single = singles.get(pixelsId);
+            Utils.checkSize(single, size, size);
+            Assert.assertEquals(thmbs.get(pixelsId), single);
+        }
+    }
 }